@@ -26,15 +26,20 @@ import java.net.NetworkInterface;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
 
 public class ZeroConf {
 
     private static final String TAG = "ZeroConf";
+    private static final String SERVICES_META_QUERY = "_services._dns-sd._udp";
+    private static final String LOCAL_DOMAIN = "local.";
 
     WifiManager.MulticastLock lock;
     private List<InetAddress> addresses;
@@ -47,6 +52,18 @@ public class ZeroConf {
     private NsdManager nsdManager;
     private Handler mainHandler;
 
+    public ZeroConf() {}
+
+    // Used by unit tests to run without an Activity
+    ZeroConf(NsdManager nsdManager, Handler mainHandler, WifiManager.MulticastLock lock) {
+        this.nsdManager = nsdManager;
+        this.mainHandler = mainHandler;
+        this.lock = lock;
+        this.addresses = new CopyOnWriteArrayList<>();
+        this.ipv6Addresses = new CopyOnWriteArrayList<>();
+        this.ipv4Addresses = new CopyOnWriteArrayList<>();
+    }
+
     public void initialize(Activity activity) {
         this.context = activity.getApplicationContext();
         this.nsdManager = (NsdManager) context.getSystemService(NSD_SERVICE);
@@ -141,17 +158,7 @@ public class ZeroConf {
     public void watchService(String type, String domain, String addressFamily, ZeroConfServiceWatchCallback callback)
             throws RuntimeException {
         Log.d(TAG, "Watch " + type + domain);
-
-        if (browserManager == null) {
-            List<InetAddress> selectedAddresses = addresses;
-            if ("ipv6".equalsIgnoreCase(addressFamily)) {
-                selectedAddresses = ipv6Addresses;
-            } else if ("ipv4".equalsIgnoreCase(addressFamily)) {
-                selectedAddresses = ipv4Addresses;
-            }
-            browserManager = new BrowserManager(nsdManager, selectedAddresses, hostname);
-        }
-        browserManager.watch(type, domain, callback);
+        getBrowserManager(addressFamily).watch(type, domain, callback);
     }
 
     public void unwatchService(String type, String domain) {
@@ -161,6 +168,20 @@ public class ZeroConf {
         }
     }
 
+    public void browseTypes(String domain, String watchPattern, String addressFamily, ZeroConfTypeBrowseCallback callback)
+            throws RuntimeException {
+        Log.d(TAG, "Browse types " + domain);
+        Pattern pattern = watchPattern != null ? Pattern.compile(watchPattern) : null;
+        getBrowserManager(addressFamily).browseTypes(normalizeDomain(domain), pattern, callback);
+    }
+
+    public void unbrowseTypes(String domain) {
+        Log.d(TAG, "Unbrowse types " + domain);
+        if (browserManager != null) {
+            browserManager.unbrowseTypes(normalizeDomain(domain));
+        }
+    }
+
     public void close() {
         Log.d(TAG, "Close");
 
@@ -171,6 +192,19 @@ public class ZeroConf {
         }
     }
 
+    private BrowserManager getBrowserManager(String addressFamily) {
+        if (browserManager == null) {
+            List<InetAddress> selectedAddresses = addresses;
+            if ("ipv6".equalsIgnoreCase(addressFamily)) {
+                selectedAddresses = ipv6Addresses;
+            } else if ("ipv4".equalsIgnoreCase(addressFamily)) {
+                selectedAddresses = ipv4Addresses;
+            }
+            browserManager = new BrowserManager(nsdManager, selectedAddresses, hostname);
+        }
+        return browserManager;
+    }
+
     private static class RegistrationManager {
 
         private final NsdManager nsdManager;
@@ -263,8 +297,11 @@ public class ZeroConf {
     private class BrowserManager {
         private String st;
         private final NsdManager nsdManager;
+        // NSD events are posted to the main thread, so these maps are only used there
         private final Map<String, ZeroConfServiceWatchCallback> calls = new HashMap<>();
-        private final Map<String, NsdManager.DiscoveryListener> discoveryListeners = new HashMap<>();
+        private final Map<String, AutoWatch> autoWatches = new HashMap<>();
+        private final Map<String, DiscoverySession> sessions = new HashMap<>();
+        private final Map<String, TypeBrowser> typeBrowsers = new HashMap<>();
 
         public BrowserManager(NsdManager nsdManager, List<InetAddress> addresses, String hostname) {
             this.nsdManager = nsdManager;
@@ -276,8 +313,27 @@ public class ZeroConf {
             Log.d(TAG, "watch record: " + serviceKey);
 
             calls.put(serviceKey, callback);
+            startDiscovery(type, serviceKey).replay(callback);
+        }
+
+        private void unwatch(String type, String domain) {
+            String serviceKey = type + domain;
+            calls.remove(serviceKey);
+            stopDiscoveryIfIdle(serviceKey);
+        }
+
+        // A discovery session is shared between an explicit watch and an
+        // automatic watch started by browseTypes for the same type. Callbacks
+        // joining a running session are replayed the services it already found.
+        private DiscoverySession startDiscovery(String type, String serviceKey) {
+            DiscoverySession running = sessions.get(serviceKey);
+            if (running != null) {
+                Log.d(TAG, "Discovery already running for: " + serviceKey);
+                return running;
+            }
 
-            NsdManager.DiscoveryListener discoveryListener = new NsdManager.DiscoveryListener() {
+            DiscoverySession session = new DiscoverySession();
+            session.listener = new NsdManager.DiscoveryListener() {
                 @Override
                 public void onDiscoveryStarted(String regType) {
                     Log.d(TAG, "Service discovery started for: " + regType);
@@ -293,7 +349,7 @@ public class ZeroConf {
                         public void onResolveFailed(NsdServiceInfo serviceInfo, int errorCode) {
                             Log.e(TAG, "Resolve failed for: " + serviceInfo.getServiceName() + " Error: " + errorCode);
                             // Still send the added callback even if resolve fails, but with limited info
-                            sendCallback(ZeroConfServiceWatchCallback.ADDED, serviceInfo);
+                            mainHandler.post(() -> serviceFound(session, serviceKey, serviceInfo, false));
                         }
 
                         @Override
@@ -303,8 +359,7 @@ public class ZeroConf {
                                     ", Host: "
                                     + (serviceInfo.getHost() != null ? serviceInfo.getHost().toString() : "null"));
                             // Send both ADDED and RESOLVED callbacks with the resolved service info
-                            sendCallback(ZeroConfServiceWatchCallback.ADDED, serviceInfo);
-                            sendCallback(ZeroConfServiceWatchCallback.RESOLVED, serviceInfo);
+                            mainHandler.post(() -> serviceFound(session, serviceKey, serviceInfo, true));
                         }
                     });
                 }
@@ -312,7 +367,7 @@ public class ZeroConf {
                 @Override
                 public void onServiceLost(NsdServiceInfo service) {
                     Log.d(TAG, "Service lost: " + service.getServiceName());
-                    sendCallback(ZeroConfServiceWatchCallback.REMOVED, service);
+                    mainHandler.post(() -> serviceLost(session, serviceKey, service));
                 }
 
                 @Override
@@ -323,6 +378,7 @@ public class ZeroConf {
                 @Override
                 public void onStartDiscoveryFailed(String serviceType, int errorCode) {
                     Log.e(TAG, "Discovery failed for: " + serviceType + " Error: " + errorCode);
+                    mainHandler.post(() -> discoveryFailed(session, type, serviceKey, errorCode));
                 }
 
                 @Override
@@ -331,44 +387,300 @@ public class ZeroConf {
                 }
             };
 
-            discoveryListeners.put(serviceKey, discoveryListener);
-            nsdManager.discoverServices(type, NsdManager.PROTOCOL_DNS_SD, discoveryListener);
+            sessions.put(serviceKey, session);
+            nsdManager.discoverServices(type, NsdManager.PROTOCOL_DNS_SD, session.listener);
+            return session;
         }
 
-        private void unwatch(String type, String domain) {
-            String serviceKey = type + domain;
-            calls.remove(serviceKey);
+        private void stopDiscoveryIfIdle(String serviceKey) {
+            if (calls.containsKey(serviceKey) || autoWatches.containsKey(serviceKey)) {
+                return;
+            }
 
-            NsdManager.DiscoveryListener listener = discoveryListeners.get(serviceKey);
-            if (listener != null) {
-                nsdManager.stopServiceDiscovery(listener);
-                discoveryListeners.remove(serviceKey);
+            DiscoverySession session = sessions.remove(serviceKey);
+            if (session != null) {
+                try {
+                    nsdManager.stopServiceDiscovery(session.listener);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error stopping service discovery", e);
+                }
+            }
+        }
+
+        // NSD has already dropped the listener; forget the session so the next
+        // watch retries, and let a later typeFound retry a failed auto watch.
+        private void discoveryFailed(DiscoverySession session, String type, String serviceKey, int errorCode) {
+            if (!sessions.remove(serviceKey, session) || autoWatches.remove(serviceKey) == null) {
+                return;
+            }
+            for (Map.Entry<String, TypeBrowser> entry : typeBrowsers.entrySet()) {
+                TypeBrowser browser = entry.getValue();
+                if (browser.autoWatched.remove(serviceKey)) {
+                    browser.types.remove(type);
+                    browser.callback.serviceTypeWatchFailed(type, entry.getKey(), errorCode);
+                }
+            }
+        }
+
+        private void serviceFound(DiscoverySession session, String serviceKey, NsdServiceInfo service, boolean resolved) {
+            // Ignore events from a session that has since been stopped
+            if (sessions.get(serviceKey) != session) {
+                return;
+            }
+            session.services.put(service.getServiceName(), service);
+            if (resolved) {
+                session.resolved.add(service.getServiceName());
+            }
+            sendCallback(serviceKey, ZeroConfServiceWatchCallback.ADDED, service);
+            if (resolved) {
+                sendCallback(serviceKey, ZeroConfServiceWatchCallback.RESOLVED, service);
+            }
+        }
+
+        private void serviceLost(DiscoverySession session, String serviceKey, NsdServiceInfo service) {
+            if (sessions.get(serviceKey) != session) {
+                return;
+            }
+            session.services.remove(service.getServiceName());
+            session.resolved.remove(service.getServiceName());
+            sendCallback(serviceKey, ZeroConfServiceWatchCallback.REMOVED, service);
+        }
+
+        private void browseTypes(String domain, Pattern pattern, ZeroConfTypeBrowseCallback callback) {
+            Log.d(TAG, "browse types: " + domain);
+
+            // Restart a running enumeration so types are reported to the new callback
+            TypeBrowser replaced = stopTypeBrowser(domain);
+            if (replaced != null) {
+                replaced.callback.serviceTypeBrowseStopped(domain, true);
+            }
+
+            TypeBrowser browser = new TypeBrowser(pattern, callback);
+            browser.listener = new NsdManager.DiscoveryListener() {
+                @Override
+                public void onDiscoveryStarted(String regType) {
+                    Log.d(TAG, "Type enumeration started for: " + regType);
+                }
+
+                @Override
+                public void onServiceFound(NsdServiceInfo service) {
+                    final String type = typeFromMetaQuery(service);
+                    Log.d(TAG, "Service type found: " + type);
+                    mainHandler.post(() -> typeFound(browser, type, domain));
+                }
+
+                @Override
+                public void onServiceLost(NsdServiceInfo service) {
+                    final String type = typeFromMetaQuery(service);
+                    Log.d(TAG, "Service type lost: " + type);
+                    mainHandler.post(() -> typeLost(browser, type, domain));
+                }
+
+                @Override
+                public void onDiscoveryStopped(String serviceType) {
+                    Log.d(TAG, "Type enumeration stopped for: " + serviceType);
+                }
+
+                @Override
+                public void onStartDiscoveryFailed(String serviceType, int errorCode) {
+                    Log.e(TAG, "Type enumeration failed for: " + serviceType + " Error: " + errorCode);
+                    mainHandler.post(() -> typeBrowseFailed(browser, domain, errorCode));
+                }
+
+                @Override
+                public void onStopDiscoveryFailed(String serviceType, int errorCode) {
+                    Log.e(TAG, "Stop type enumeration failed for: " + serviceType + " Error: " + errorCode);
+                }
+            };
+
+            typeBrowsers.put(domain, browser);
+            nsdManager.discoverServices(SERVICES_META_QUERY, NsdManager.PROTOCOL_DNS_SD, browser.listener);
+        }
+
+        private void unbrowseTypes(String domain) {
+            TypeBrowser browser = stopTypeBrowser(domain);
+            if (browser != null) {
+                browser.callback.serviceTypeBrowseStopped(domain, false);
+            }
+        }
+
+        private TypeBrowser stopTypeBrowser(String domain) {
+            TypeBrowser browser = typeBrowsers.remove(domain);
+            if (browser == null) {
+                return null;
+            }
+
+            try {
+                nsdManager.stopServiceDiscovery(browser.listener);
+            } catch (Exception e) {
+                Log.e(TAG, "Error stopping type enumeration", e);
+            }
+            releaseAutoWatches(browser);
+            return browser;
+        }
+
+        private void typeBrowseFailed(TypeBrowser browser, String domain, int errorCode) {
+            if (typeBrowsers.get(domain) != browser) {
+                return;
+            }
+            typeBrowsers.remove(domain);
+            releaseAutoWatches(browser);
+            browser.callback.serviceTypeBrowseFailed(domain, errorCode);
+        }
+
+        private void releaseAutoWatches(TypeBrowser browser) {
+            for (String serviceKey : browser.autoWatched) {
+                autoWatches.remove(serviceKey);
+                stopDiscoveryIfIdle(serviceKey);
+            }
+            browser.autoWatched.clear();
+        }
+
+        private void typeFound(TypeBrowser browser, String type, String domain) {
+            // Ignore events from an enumeration that has since been stopped or replaced
+            if (typeBrowsers.get(domain) != browser || !browser.types.add(type)) {
+                return;
+            }
+            browser.callback.serviceTypeEvent(ZeroConfTypeBrowseCallback.TYPE_ADDED, type, domain);
+
+            if (browser.pattern != null && browser.pattern.matcher(type).find()) {
+                String serviceKey = type + domain;
+                Log.d(TAG, "auto watch: " + serviceKey);
+                browser.autoWatched.add(serviceKey);
+                AutoWatch autoWatch = new AutoWatch(browser.callback);
+                autoWatches.put(serviceKey, autoWatch);
+                startDiscovery(type, serviceKey).replay(autoWatch);
+            }
+        }
+
+        private void typeLost(TypeBrowser browser, String type, String domain) {
+            if (typeBrowsers.get(domain) != browser || !browser.types.remove(type)) {
+                return;
+            }
+            browser.callback.serviceTypeEvent(ZeroConfTypeBrowseCallback.TYPE_REMOVED, type, domain);
+
+            String serviceKey = type + domain;
+            if (browser.autoWatched.remove(serviceKey)) {
+                Log.d(TAG, "auto unwatch: " + serviceKey);
+                AutoWatch autoWatch = autoWatches.remove(serviceKey);
+                stopDiscoveryIfIdle(serviceKey);
+                if (autoWatch != null) {
+                    autoWatch.removeAll();
+                }
             }
         }
 
         private void close() {
             lock.release();
             calls.clear();
+            autoWatches.clear();
 
-            for (NsdManager.DiscoveryListener listener : discoveryListeners.values()) {
+            for (Map.Entry<String, TypeBrowser> entry : typeBrowsers.entrySet()) {
                 try {
-                    nsdManager.stopServiceDiscovery(listener);
+                    nsdManager.stopServiceDiscovery(entry.getValue().listener);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error stopping type enumeration", e);
+                }
+                entry.getValue().callback.serviceTypeBrowseStopped(entry.getKey(), false);
+            }
+            typeBrowsers.clear();
+
+            for (DiscoverySession session : sessions.values()) {
+                try {
+                    nsdManager.stopServiceDiscovery(session.listener);
                 } catch (Exception e) {
                     Log.e(TAG, "Error stopping service discovery", e);
                 }
             }
-            discoveryListeners.clear();
+            sessions.clear();
         }
 
-        public void sendCallback(String action, NsdServiceInfo service) {
-            String st = service.getServiceType().replaceAll("^\\.+|\\.+$", "") + ".local.";
-            ZeroConfServiceWatchCallback callback = calls.get(st);
-            if (callback == null) {
-                Log.d(TAG, "sendCallback: no callback for " + st);
+        public void sendCallback(String serviceKey, String action, NsdServiceInfo service) {
+            ZeroConfServiceWatchCallback callback = calls.get(serviceKey);
+            AutoWatch autoWatch = autoWatches.get(serviceKey);
+            if (callback == null && autoWatch == null) {
+                Log.d(TAG, "sendCallback: no callback for " + serviceKey);
                 return;
             }
+            if (callback != null) {
+                callback.serviceBrowserEvent(action, service);
+            }
+            if (autoWatch != null) {
+                autoWatch.serviceBrowserEvent(action, service);
+            }
+        }
+    }
+
+    private static class DiscoverySession {
+        private final Map<String, NsdServiceInfo> services = new HashMap<>();
+        private final Set<String> resolved = new HashSet<>();
+        private NsdManager.DiscoveryListener listener;
+
+        void replay(ZeroConfServiceWatchCallback callback) {
+            for (NsdServiceInfo service : services.values()) {
+                callback.serviceBrowserEvent(ZeroConfServiceWatchCallback.ADDED, service);
+                if (resolved.contains(service.getServiceName())) {
+                    callback.serviceBrowserEvent(ZeroConfServiceWatchCallback.RESOLVED, service);
+                }
+            }
+        }
+    }
+
+    // Watch started by browseTypes. It remembers the services it reported so
+    // they can be removed when their type disappears from the network.
+    private static class AutoWatch implements ZeroConfServiceWatchCallback {
+        private final ZeroConfTypeBrowseCallback callback;
+        private final Map<String, NsdServiceInfo> services = new HashMap<>();
+
+        AutoWatch(ZeroConfTypeBrowseCallback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void serviceBrowserEvent(String action, NsdServiceInfo service) {
+            if (REMOVED.equals(action)) {
+                services.remove(service.getServiceName());
+            } else {
+                services.put(service.getServiceName(), service);
+            }
             callback.serviceBrowserEvent(action, service);
         }
+
+        void removeAll() {
+            for (NsdServiceInfo service : services.values()) {
+                callback.serviceBrowserEvent(REMOVED, service);
+            }
+            services.clear();
+        }
+    }
+
+    private static class TypeBrowser {
+        private final Pattern pattern;
+        private final ZeroConfTypeBrowseCallback callback;
+        private final Set<String> types = new HashSet<>();
+        private final Set<String> autoWatched = new HashSet<>();
+        private NsdManager.DiscoveryListener listener;
+
+        TypeBrowser(Pattern pattern, ZeroConfTypeBrowseCallback callback) {
+            this.pattern = pattern;
+            this.callback = callback;
+        }
+    }
+
+    // NSD only browses mDNS, so type enumerations and their auto watches
+    // are always keyed on "local.", like a watch() on the local domain.
+    private static String normalizeDomain(String domain) {
+        if (domain != null && !"local".equalsIgnoreCase(domain.replaceAll("^\\.+|\\.+$", ""))) {
+            Log.w(TAG, "Only the local domain is supported, ignoring: " + domain);
+        }
+        return LOCAL_DOMAIN;
+    }
+
+    // The DNS-SD meta-query reports each type as a service named after the
+    // first label, e.g. name "_http" with type "_tcp.local.".
+    static String typeFromMetaQuery(NsdServiceInfo service) {
+        String protocol = service.getServiceType().replaceAll("^\\.+|\\.+$", "").replaceAll("\\.local$", "");
+        return service.getServiceName() + "." + protocol + ".";
     }
 
     private static String getHostNameFromActivity(Activity activity)
@@ -136,6 +136,90 @@ public class ZeroConfPlugin extends Plugin {
             });
     }
 
+    @PluginMethod(returnType = PluginMethod.RETURN_CALLBACK)
+    public void browseTypes(PluginCall call) {
+        final String domain = call.getString("domain");
+        final String watchPattern = call.getString("watchPattern");
+        final String addressFamily = call.getString("addressFamily");
+
+        getBridge()
+            .executeOnMainThread(() -> {
+                try {
+                    implementation.browseTypes(
+                        domain,
+                        watchPattern,
+                        addressFamily,
+                        new ZeroConfTypeBrowseCallback() {
+                            @Override
+                            public void serviceTypeEvent(String action, String type, String typeDomain) {
+                                JSObject status = new JSObject();
+                                status.put("action", action);
+                                status.put("type", type);
+                                status.put("domain", typeDomain);
+
+                                call.setKeepAlive(true);
+                                call.resolve(status);
+                            }
+
+                            @Override
+                            public void serviceBrowserEvent(String action, NsdServiceInfo service) {
+                                JSObject status = new JSObject();
+                                status.put("action", action);
+                                status.put("service", jsonifyService(service));
+
+                                call.setKeepAlive(true);
+                                call.resolve(status);
+                            }
+
+                            @Override
+                            public void serviceTypeWatchFailed(String type, String typeDomain, int errorCode) {
+                                JSObject status = new JSObject();
+                                status.put("action", ZeroConfTypeBrowseCallback.TYPE_WATCH_FAILED);
+                                status.put("type", type);
+                                status.put("domain", typeDomain);
+                                status.put("errorCode", errorCode);
+
+                                call.setKeepAlive(true);
+                                call.resolve(status);
+                            }
+
+                            @Override
+                            public void serviceTypeBrowseFailed(String typeDomain, int errorCode) {
+                                call.setKeepAlive(false);
+                                call.reject("Error: type enumeration failed for " + typeDomain + " (" + errorCode + ")");
+                                getBridge().releaseCall(call);
+                            }
+
+                            @Override
+                            public void serviceTypeBrowseStopped(String typeDomain, boolean replaced) {
+                                call.setKeepAlive(false);
+                                if (replaced) {
+                                    call.reject("Error: type enumeration replaced for " + typeDomain);
+                                }
+                                getBridge().releaseCall(call);
+                            }
+                        }
+                    );
+                } catch (RuntimeException e) {
+                    call.reject("Error: " + e.getMessage());
+                }
+            });
+
+        call.setKeepAlive(true);
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void unbrowseTypes(PluginCall call) {
+        final String domain = call.getString("domain");
+
+        getBridge()
+            .executeOnMainThread(() -> {
+                implementation.unbrowseTypes(domain);
+                call.resolve();
+            });
+    }
+
     @PluginMethod
     public void close(PluginCall call) {
         getBridge()
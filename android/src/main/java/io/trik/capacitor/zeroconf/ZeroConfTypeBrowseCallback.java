@@ -0,0 +1,19 @@
+package io.trik.capacitor.zeroconf;
+
+import android.net.nsd.NsdServiceInfo;
+
+public interface ZeroConfTypeBrowseCallback {
+    String TYPE_ADDED = "typeAdded";
+    String TYPE_REMOVED = "typeRemoved";
+    String TYPE_WATCH_FAILED = "typeWatchFailed";
+
+    void serviceTypeEvent(String action, String type, String domain);
+
+    void serviceBrowserEvent(String action, NsdServiceInfo service);
+
+    void serviceTypeWatchFailed(String type, String domain, int errorCode);
+
+    void serviceTypeBrowseFailed(String domain, int errorCode);
+
+    void serviceTypeBrowseStopped(String domain, boolean replaced);
+}
@@ -0,0 +1,215 @@
+package io.trik.capacitor.zeroconf;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.net.nsd.NsdManager;
+import android.net.nsd.NsdServiceInfo;
+import android.net.wifi.WifiManager;
+import android.os.Handler;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Unit tests for the discovery sessions shared between watch() and the
+ * automatic watches started by browseTypes().
+ */
+public class ZeroConfTest {
+
+    private static final String META_QUERY = "_services._dns-sd._udp";
+    private static final String TYPE = "_http._tcp.";
+    private static final String DOMAIN = "local.";
+
+    private NsdManager nsdManager;
+    private ZeroConf zeroConf;
+    private ZeroConfServiceWatchCallback watchCallback;
+    private ZeroConfTypeBrowseCallback browseCallback;
+
+    @Before
+    public void setUp() {
+        nsdManager = mock(NsdManager.class);
+        Handler handler = mock(Handler.class);
+        when(handler.post(any(Runnable.class))).thenAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return true;
+        });
+        zeroConf = new ZeroConf(nsdManager, handler, mock(WifiManager.MulticastLock.class));
+        watchCallback = mock(ZeroConfServiceWatchCallback.class);
+        browseCallback = mock(ZeroConfTypeBrowseCallback.class);
+    }
+
+    @Test
+    public void typeFromMetaQuery_joinsNameAndProtocol() {
+        assertEquals("_http._tcp.", ZeroConf.typeFromMetaQuery(service("_http", "_tcp.local.")));
+        assertEquals("_ipp._tcp.", ZeroConf.typeFromMetaQuery(service("_ipp", "._tcp")));
+        assertEquals("_airplay._udp.", ZeroConf.typeFromMetaQuery(service("_airplay", "_udp.")));
+    }
+
+    @Test
+    public void watchAndAutoWatch_shareOneDiscovery() {
+        zeroConf.watchService(TYPE, DOMAIN, null, watchCallback);
+        NsdManager.DiscoveryListener metaListener = browseTypes("^_http\\.");
+        metaListener.onServiceFound(service("_http", "_tcp.local."));
+
+        verify(browseCallback).serviceTypeEvent(ZeroConfTypeBrowseCallback.TYPE_ADDED, TYPE, DOMAIN);
+        NsdManager.DiscoveryListener typeListener = discoveryFor(TYPE);
+
+        // The auto watch still needs the session after the explicit unwatch
+        zeroConf.unwatchService(TYPE, DOMAIN);
+        verify(nsdManager, never()).stopServiceDiscovery(typeListener);
+
+        metaListener.onServiceLost(service("_http", "_tcp.local."));
+        verify(browseCallback).serviceTypeEvent(ZeroConfTypeBrowseCallback.TYPE_REMOVED, TYPE, DOMAIN);
+        verify(nsdManager).stopServiceDiscovery(typeListener);
+    }
+
+    @Test
+    public void watchAfterAutoWatch_replaysFoundServices() {
+        NsdManager.DiscoveryListener metaListener = browseTypes("^_http\\.");
+        metaListener.onServiceFound(service("_http", "_tcp.local."));
+        NsdServiceInfo printer = resolve(discoveryFor(TYPE), service("printer", "._http._tcp"));
+
+        zeroConf.watchService(TYPE, DOMAIN, null, watchCallback);
+        verify(watchCallback).serviceBrowserEvent(ZeroConfServiceWatchCallback.ADDED, printer);
+        verify(watchCallback).serviceBrowserEvent(ZeroConfServiceWatchCallback.RESOLVED, printer);
+        verify(nsdManager).discoverServices(eq(TYPE), anyInt(), any(NsdManager.DiscoveryListener.class));
+    }
+
+    @Test
+    public void autoWatchAfterWatch_replaysFoundServices() {
+        zeroConf.watchService(TYPE, DOMAIN, null, watchCallback);
+        NsdServiceInfo printer = resolve(discoveryFor(TYPE), service("printer", "._http._tcp"));
+
+        NsdManager.DiscoveryListener metaListener = browseTypes("^_http\\.");
+        metaListener.onServiceFound(service("_http", "_tcp.local."));
+        verify(browseCallback).serviceBrowserEvent(ZeroConfServiceWatchCallback.ADDED, printer);
+        verify(browseCallback).serviceBrowserEvent(ZeroConfServiceWatchCallback.RESOLVED, printer);
+    }
+
+    @Test
+    public void repeatedWatch_replaysFoundServices() {
+        zeroConf.watchService(TYPE, DOMAIN, null, watchCallback);
+        NsdServiceInfo printer = resolve(discoveryFor(TYPE), service("printer", "._http._tcp"));
+
+        ZeroConfServiceWatchCallback secondCallback = mock(ZeroConfServiceWatchCallback.class);
+        zeroConf.watchService(TYPE, DOMAIN, null, secondCallback);
+        verify(secondCallback).serviceBrowserEvent(ZeroConfServiceWatchCallback.ADDED, printer);
+        verify(secondCallback).serviceBrowserEvent(ZeroConfServiceWatchCallback.RESOLVED, printer);
+    }
+
+    @Test
+    public void typeLost_keepsExplicitWatchRunning() {
+        zeroConf.watchService(TYPE, DOMAIN, null, watchCallback);
+        NsdManager.DiscoveryListener metaListener = browseTypes("^_http\\.");
+        metaListener.onServiceFound(service("_http", "_tcp.local."));
+        NsdManager.DiscoveryListener typeListener = discoveryFor(TYPE);
+
+        metaListener.onServiceLost(service("_http", "_tcp.local."));
+        verify(nsdManager, never()).stopServiceDiscovery(typeListener);
+
+        zeroConf.unwatchService(TYPE, DOMAIN);
+        verify(nsdManager).stopServiceDiscovery(typeListener);
+    }
+
+    @Test
+    public void typeLost_removesAutoWatchedServices() {
+        NsdManager.DiscoveryListener metaListener = browseTypes("^_http\\.");
+        metaListener.onServiceFound(service("_http", "_tcp.local."));
+        NsdManager.DiscoveryListener typeListener = discoveryFor(TYPE);
+
+        NsdServiceInfo printer = resolve(typeListener, service("printer", "._http._tcp"));
+        verify(browseCallback).serviceBrowserEvent(ZeroConfServiceWatchCallback.ADDED, printer);
+
+        metaListener.onServiceLost(service("_http", "_tcp.local."));
+        verify(browseCallback).serviceBrowserEvent(ZeroConfServiceWatchCallback.REMOVED, printer);
+    }
+
+    @Test
+    public void autoWatch_usesNormalizedDomain() {
+        NsdManager.DiscoveryListener metaListener = browseTypes("^_http\\.", "local");
+        metaListener.onServiceFound(service("_http", "_tcp.local."));
+        NsdManager.DiscoveryListener typeListener = discoveryFor(TYPE);
+
+        NsdServiceInfo printer = service("printer", "._http._tcp");
+        typeListener.onServiceLost(printer);
+        verify(browseCallback).serviceBrowserEvent(ZeroConfServiceWatchCallback.REMOVED, printer);
+    }
+
+    @Test
+    public void failedDiscovery_isRetriedByNextWatch() {
+        zeroConf.watchService(TYPE, DOMAIN, null, watchCallback);
+        discoveryFor(TYPE).onStartDiscoveryFailed(TYPE, NsdManager.FAILURE_MAX_LIMIT);
+
+        zeroConf.watchService(TYPE, DOMAIN, null, watchCallback);
+        verify(nsdManager, times(2)).discoverServices(eq(TYPE), anyInt(), any(NsdManager.DiscoveryListener.class));
+    }
+
+    @Test
+    public void failedAutoWatch_isReportedAndRetried() {
+        NsdManager.DiscoveryListener metaListener = browseTypes("^_http\\.");
+        metaListener.onServiceFound(service("_http", "_tcp.local."));
+        discoveryFor(TYPE).onStartDiscoveryFailed(TYPE, NsdManager.FAILURE_MAX_LIMIT);
+        verify(browseCallback).serviceTypeWatchFailed(TYPE, DOMAIN, NsdManager.FAILURE_MAX_LIMIT);
+
+        metaListener.onServiceFound(service("_http", "_tcp.local."));
+        verify(browseCallback, times(2)).serviceTypeEvent(ZeroConfTypeBrowseCallback.TYPE_ADDED, TYPE, DOMAIN);
+        verify(nsdManager, times(2)).discoverServices(eq(TYPE), anyInt(), any(NsdManager.DiscoveryListener.class));
+    }
+
+    @Test
+    public void failedTypeEnumeration_isReported() {
+        NsdManager.DiscoveryListener metaListener = browseTypes(null);
+        metaListener.onStartDiscoveryFailed(META_QUERY, NsdManager.FAILURE_MAX_LIMIT);
+
+        verify(browseCallback).serviceTypeBrowseFailed(DOMAIN, NsdManager.FAILURE_MAX_LIMIT);
+    }
+
+    @Test
+    public void replacedTypeEnumeration_isStopped() {
+        browseTypes(null);
+        ZeroConfTypeBrowseCallback nextCallback = mock(ZeroConfTypeBrowseCallback.class);
+        zeroConf.browseTypes(DOMAIN, null, null, nextCallback);
+        verify(browseCallback).serviceTypeBrowseStopped(DOMAIN, true);
+
+        zeroConf.unbrowseTypes(DOMAIN);
+        verify(nextCallback).serviceTypeBrowseStopped(DOMAIN, false);
+    }
+
+    private NsdManager.DiscoveryListener browseTypes(String watchPattern) {
+        return browseTypes(watchPattern, DOMAIN);
+    }
+
+    private NsdManager.DiscoveryListener browseTypes(String watchPattern, String domain) {
+        zeroConf.browseTypes(domain, watchPattern, null, browseCallback);
+        return discoveryFor(META_QUERY);
+    }
+
+    private NsdManager.DiscoveryListener discoveryFor(String type) {
+        ArgumentCaptor<NsdManager.DiscoveryListener> listener = ArgumentCaptor.forClass(NsdManager.DiscoveryListener.class);
+        verify(nsdManager).discoverServices(eq(type), eq(NsdManager.PROTOCOL_DNS_SD), listener.capture());
+        return listener.getValue();
+    }
+
+    private NsdServiceInfo resolve(NsdManager.DiscoveryListener typeListener, NsdServiceInfo service) {
+        typeListener.onServiceFound(service);
+        ArgumentCaptor<NsdManager.ResolveListener> resolve = ArgumentCaptor.forClass(NsdManager.ResolveListener.class);
+        verify(nsdManager).resolveService(eq(service), resolve.capture());
+        resolve.getValue().onServiceResolved(service);
+        return service;
+    }
+
+    private static NsdServiceInfo service(String name, String type) {
+        NsdServiceInfo service = mock(NsdServiceInfo.class);
+        when(service.getServiceName()).thenReturn(name);
+        when(service.getServiceType()).thenReturn(type);
+        return service;
+    }
+}
@@ -5,9 +5,12 @@ import { hostname } from 'os';
 
 import type {
   CallbackID,
+  ZeroConfBrowseTypesCallback,
+  ZeroConfBrowseTypesRequest,
   ZeroConfPlugin,
   ZeroConfRegisterRequest,
   ZeroConfService,
+  ZeroConfUnbrowseTypesRequest,
   ZeroConfUnregisterRequest,
   ZeroConfUnwatchRequest,
   ZeroConfWatchCallback,
@@ -139,6 +142,14 @@ export class ZeroConf extends EventEmitter implements ZeroConfPlugin {
       resolve();
     });
   }
+  // eslint-disable-next-line @typescript-eslint/no-unused-vars
+  browseTypes(_request: ZeroConfBrowseTypesRequest, _callback?: ZeroConfBrowseTypesCallback): Promise<CallbackID> {
+    return Promise.reject('browseTypes is not implemented in electron');
+  }
+  // eslint-disable-next-line @typescript-eslint/no-unused-vars
+  unbrowseTypes(_request: ZeroConfUnbrowseTypesRequest): Promise<void> {
+    return Promise.reject('unbrowseTypes is not implemented in electron');
+  }
   close(): Promise<void> {
     return Promise.resolve();
   }
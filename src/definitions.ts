@@ -36,6 +36,33 @@ export type ZeroConfWatchResult = {
 };
 export type ZeroConfWatchCallback = (event: ZeroConfWatchResult) => void;
 
+export interface ZeroConfBrowseTypesRequest {
+  domain: string;
+  /**
+   * Regular expression matched against each discovered type (e.g. `^_(http|ipp)\._tcp\.$`).
+   * Matching types are watched automatically and their service events are
+   * delivered to the browseTypes callback; the watch is stopped when the type disappears
+   * and a `removed` event is sent for each of its services. If the watch cannot be
+   * started (e.g. too many concurrent discoveries), a `typeWatchFailed` event is sent.
+   */
+  watchPattern?: string;
+}
+
+export interface ZeroConfUnbrowseTypesRequest {
+  domain: string;
+}
+
+export type ZeroConfBrowseTypesAction = 'typeAdded' | 'typeRemoved' | 'typeWatchFailed';
+export type ZeroConfBrowseTypesResult =
+  | {
+      action: ZeroConfBrowseTypesAction;
+      type: string;
+      domain: string;
+      errorCode?: number;
+    }
+  | ZeroConfWatchResult;
+export type ZeroConfBrowseTypesCallback = (event: ZeroConfBrowseTypesResult) => void;
+
 export interface ZeroConfPlugin {
   addListener(
     eventName: 'discover',
@@ -47,5 +74,13 @@ export interface ZeroConfPlugin {
   stop(): Promise<void>;
   watch(request: ZeroConfWatchRequest, callback?: ZeroConfWatchCallback): Promise<CallbackID>;
   unwatch(request: ZeroConfUnwatchRequest): Promise<void>;
+  /**
+   * Enumerate the service types advertised on the network using the
+   * `_services._dns-sd._udp` meta-query. Only supported on Android.
+   * The callback receives an error if the enumeration cannot be started, or if it
+   * is replaced by a later browseTypes call for the same domain.
+   */
+  browseTypes(request: ZeroConfBrowseTypesRequest, callback?: ZeroConfBrowseTypesCallback): Promise<CallbackID>;
+  unbrowseTypes(request: ZeroConfUnbrowseTypesRequest): Promise<void>;
   close(): Promise<void>;
 }
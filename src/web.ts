@@ -2,8 +2,11 @@ import { WebPlugin } from '@capacitor/core';
 
 import type {
   CallbackID,
+  ZeroConfBrowseTypesCallback,
+  ZeroConfBrowseTypesRequest,
   ZeroConfPlugin,
   ZeroConfRegisterRequest,
+  ZeroConfUnbrowseTypesRequest,
   ZeroConfUnregisterRequest,
   ZeroConfUnwatchRequest,
   ZeroConfWatchCallback,
@@ -40,6 +43,18 @@ export class ZeroConfWeb extends WebPlugin implements ZeroConfPlugin {
   unwatch(_request: ZeroConfUnwatchRequest): Promise<void> {
     return errorFn;
   }
+  browseTypes(
+    // eslint-disable-next-line @typescript-eslint/no-unused-vars
+    _request: ZeroConfBrowseTypesRequest,
+    // eslint-disable-next-line @typescript-eslint/no-unused-vars
+    _callback: ZeroConfBrowseTypesCallback
+  ): Promise<CallbackID> {
+    return errorFn;
+  }
+  // eslint-disable-next-line @typescript-eslint/no-unused-vars
+  unbrowseTypes(_request: ZeroConfUnbrowseTypesRequest): Promise<void> {
+    return errorFn;
+  }
   close(): Promise<void> {
     return errorFn;
   }